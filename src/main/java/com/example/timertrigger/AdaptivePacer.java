@@ -0,0 +1,98 @@
+package com.example.timertrigger;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class AdaptivePacer {
+    private static final double ERROR_RATE_ALPHA = 0.2;
+    private static final long DECREASE_STEP_MS = 500;
+    private static final long INCREASE_FACTOR = 2;
+
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private final long initialIntervalMs;
+    private final long targetLatencyMs;
+    private final double maxErrorRate;
+    private final Map<Integer, PortState> states = new HashMap<>();
+
+    public AdaptivePacer(long minIntervalMs, long maxIntervalMs, long initialIntervalMs,
+                         long targetLatencyMs, double maxErrorRate) {
+        if (minIntervalMs <= 0 || maxIntervalMs < minIntervalMs) {
+            throw new IllegalArgumentException("Invalid pacing bounds: " + minIntervalMs + ".." + maxIntervalMs);
+        }
+        this.minIntervalMs = minIntervalMs;
+        this.maxIntervalMs = maxIntervalMs;
+        this.initialIntervalMs = clamp(initialIntervalMs);
+        this.targetLatencyMs = targetLatencyMs;
+        this.maxErrorRate = maxErrorRate;
+    }
+
+    public synchronized Adjustment record(int devicePort, long latencyMs, boolean success) {
+        PortState state = stateFor(devicePort);
+        state.errorRate = state.errorRate * (1 - ERROR_RATE_ALPHA) + (success ? 0 : ERROR_RATE_ALPHA);
+        long previous = state.intervalMs;
+        String reason;
+        if (!success) {
+            state.intervalMs = clamp(previous * INCREASE_FACTOR);
+            reason = "error";
+        } else if (latencyMs > targetLatencyMs) {
+            state.intervalMs = clamp(previous * INCREASE_FACTOR);
+            reason = "latency";
+        } else if (state.errorRate > maxErrorRate) {
+            reason = "errorRate";
+        } else {
+            state.intervalMs = clamp(previous - DECREASE_STEP_MS);
+            reason = "ok";
+        }
+        return new Adjustment(devicePort, previous, state.intervalMs, latencyMs, state.errorRate, reason);
+    }
+
+    public synchronized long currentIntervalMs(int devicePort) {
+        return stateFor(devicePort).intervalMs;
+    }
+
+    private PortState stateFor(int devicePort) {
+        PortState state = states.get(devicePort);
+        if (state == null) {
+            state = new PortState(initialIntervalMs);
+            states.put(devicePort, state);
+        }
+        return state;
+    }
+
+    private long clamp(long intervalMs) {
+        return Math.max(minIntervalMs, Math.min(maxIntervalMs, intervalMs));
+    }
+
+    private static class PortState {
+        private long intervalMs;
+        private double errorRate;
+
+        private PortState(long intervalMs) {
+            this.intervalMs = intervalMs;
+        }
+    }
+
+    public static class Adjustment {
+        public final int devicePort;
+        public final long previousIntervalMs;
+        public final long intervalMs;
+        public final long latencyMs;
+        public final double errorRate;
+        public final String reason;
+
+        private Adjustment(int devicePort, long previousIntervalMs, long intervalMs, long latencyMs,
+                           double errorRate, String reason) {
+            this.devicePort = devicePort;
+            this.previousIntervalMs = previousIntervalMs;
+            this.intervalMs = intervalMs;
+            this.latencyMs = latencyMs;
+            this.errorRate = errorRate;
+            this.reason = reason;
+        }
+
+        public boolean changed() {
+            return previousIntervalMs != intervalMs;
+        }
+    }
+}
@@ -22,9 +22,28 @@ public class Config {
     public Integer rfmode = 113;
     public Integer epcIntervalSec = 1;
 
+    public String mergeSteps = "off";
+    public Integer mergeMaxEpc = 50;
+    public Integer mergeMaxUrlLength = 2000;
+
+    public String pacing = "fixed";
+    public Integer pacingMinSec = 1;
+    public Integer pacingMaxSec = 30;
+    public Integer pacingTargetLatencyMs = 2000;
+    public Integer pacingMaxErrorPercent = 10;
+
+    public Boolean phaseSpread = false;
+    public String phaseKey;
+    public Integer jitterSec = 0;
+
     public Integer connectTimeoutSec = 5;
     public Integer requestTimeoutSec = 30;
     public String shutdownWait = "30s";
 
     public String logDir = "logs";
+    public Integer logMaxFileMb = 100;
+    public Boolean logCompress = true;
+    public Integer logRetentionDays = 30;
+    public Integer logMaxTotalMb = 2048;
+    public String logConsole = "all";
 }
@@ -1,25 +1,64 @@
 package com.example.timertrigger;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 
 public class LogWriter {
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Pattern SEGMENT_PATTERN = Pattern.compile("(\\d{4}-\\d{2}-\\d{2})(?:\\.(\\d+))?\\.txt");
+    private static final Pattern CONSOLE_PATTERN = Pattern.compile("console-.+\\.out");
+    private static final Pattern RECORDING_PATTERN = Pattern.compile(".+\\.jfr");
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final String TMP_SUFFIX = ".tmp";
 
     private final Path logDir;
+    private final TraceRecorder recorder = TraceRecorders.get();
+    private final long maxFileBytes;
+    private final boolean compress;
+    private final int retentionDays;
+    private final long maxTotalBytes;
+    private final String console;
+    private final ExecutorService housekeeper;
     private LocalDate currentDate;
-    private Path currentFile;
+    private volatile Path currentFile;
+    private int currentSegment;
+    private long currentSize;
 
-    public LogWriter(String logDir) {
+    public LogWriter(String logDir, long maxFileBytes, boolean compress, int retentionDays, long maxTotalBytes, String console) {
         this.logDir = Paths.get(logDir);
+        this.maxFileBytes = maxFileBytes;
+        this.compress = compress;
+        this.retentionDays = retentionDays;
+        this.maxTotalBytes = maxTotalBytes;
+        this.console = console == null ? "all" : console.trim().toLowerCase();
+        this.housekeeper = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     public synchronized void info(String message) {
@@ -30,25 +69,178 @@ public class LogWriter {
         write("ERROR", message);
     }
 
+    public void close() {
+        housekeeper.shutdown();
+        try {
+            housekeeper.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private void write(String level, String message) {
         String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMAT);
         String line = String.format("%s [%s] %s", timestamp, level, message);
-        System.out.println(line);
+        if (console.equals("all") || (console.equals("error") && level.equals("ERROR"))) {
+            System.out.println(line);
+        }
+        byte[] bytes = (line + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        Object span = recorder.beginLogWrite();
         try {
-            ensureFile();
-            Files.write(currentFile, (line + System.lineSeparator()).getBytes(StandardCharsets.UTF_8),
-                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            ensureFile(bytes.length);
+            Files.write(currentFile, bytes, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            currentSize += bytes.length;
+            recorder.endLogWrite(span, currentFile.toString(), bytes.length, null);
         } catch (IOException e) {
+            recorder.endLogWrite(span, currentFile == null ? logDir.toString() : currentFile.toString(), bytes.length, e);
             System.out.println(timestamp + " [ERROR] Failed to write log file: " + e.getMessage());
         }
     }
 
-    private void ensureFile() throws IOException {
+    private void ensureFile(int pendingBytes) throws IOException {
         LocalDate now = LocalDate.now();
         if (!now.equals(currentDate)) {
             Files.createDirectories(logDir);
             currentDate = now;
-            currentFile = logDir.resolve(DATE_FORMAT.format(now) + ".txt");
+            currentSegment = nextSegment(now);
+            openSegment();
+            scheduleHousekeeping();
+        } else if (maxFileBytes > 0 && currentSize > 0 && currentSize + pendingBytes > maxFileBytes) {
+            currentSegment++;
+            openSegment();
+            scheduleHousekeeping();
+        }
+    }
+
+    private void openSegment() throws IOException {
+        String date = DATE_FORMAT.format(currentDate);
+        currentFile = logDir.resolve(currentSegment == 0 ? date + ".txt" : date + "." + currentSegment + ".txt");
+        currentSize = Files.exists(currentFile) ? Files.size(currentFile) : 0;
+    }
+
+    private int nextSegment(LocalDate date) throws IOException {
+        String prefix = DATE_FORMAT.format(date);
+        int next = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(logDir)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                boolean compressed = name.endsWith(GZIP_SUFFIX);
+                if (compressed) {
+                    name = name.substring(0, name.length() - GZIP_SUFFIX.length());
+                }
+                Matcher matcher = SEGMENT_PATTERN.matcher(name);
+                if (matcher.matches() && matcher.group(1).equals(prefix)) {
+                    int segment = matcher.group(2) == null ? 0 : Integer.parseInt(matcher.group(2));
+                    next = Math.max(next, compressed ? segment + 1 : segment);
+                }
+            }
+        }
+        return next;
+    }
+
+    private void scheduleHousekeeping() {
+        if (!compress && retentionDays <= 0 && maxTotalBytes <= 0) {
+            return;
+        }
+        housekeeper.execute(() -> {
+            try {
+                housekeep();
+            } catch (IOException e) {
+                String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMAT);
+                System.out.println(timestamp + " [ERROR] Log housekeeping failed: " + e.getMessage());
+            }
+        });
+    }
+
+    private void housekeep() throws IOException {
+        if (compress) {
+            for (Path path : listFiles()) {
+                String name = path.getFileName().toString();
+                if (isGzipLeftover(name)) {
+                    Files.deleteIfExists(path);
+                } else if (!path.equals(currentFile)
+                        && (SEGMENT_PATTERN.matcher(name).matches() || CONSOLE_PATTERN.matcher(name).matches())) {
+                    gzip(path);
+                }
+            }
+        }
+
+        List<Path> managed = new ArrayList<>();
+        long totalBytes = 0;
+        for (Path path : listFiles()) {
+            if (isManaged(path.getFileName().toString())) {
+                totalBytes += Files.size(path);
+                if (!path.equals(currentFile)) {
+                    managed.add(path);
+                }
+            }
+        }
+        managed.sort(Comparator.comparing(this::lastModified));
+
+        Instant cutoff = Instant.now().minus(Duration.ofDays(retentionDays));
+        for (Path path : managed) {
+            boolean expired = retentionDays > 0 && lastModified(path).isBefore(cutoff);
+            boolean overBudget = maxTotalBytes > 0 && totalBytes > maxTotalBytes;
+            if ((!expired && !overBudget) || path.equals(currentFile)) {
+                continue;
+            }
+            long size = Files.size(path);
+            if (Files.deleteIfExists(path)) {
+                totalBytes -= size;
+            }
+        }
+    }
+
+    private void gzip(Path source) throws IOException {
+        Path target = source.resolveSibling(source.getFileName() + GZIP_SUFFIX);
+        Path tmp = source.resolveSibling(target.getFileName() + TMP_SUFFIX);
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        Files.setLastModifiedTime(tmp, Files.getLastModifiedTime(source));
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        Files.delete(source);
+    }
+
+    private boolean isGzipLeftover(String name) {
+        String suffix = GZIP_SUFFIX + TMP_SUFFIX;
+        if (!name.endsWith(suffix)) {
+            return false;
+        }
+        String base = name.substring(0, name.length() - suffix.length());
+        return SEGMENT_PATTERN.matcher(base).matches() || CONSOLE_PATTERN.matcher(base).matches();
+    }
+
+    private boolean isManaged(String name) {
+        if (name.endsWith(GZIP_SUFFIX)) {
+            name = name.substring(0, name.length() - GZIP_SUFFIX.length());
+        }
+        return SEGMENT_PATTERN.matcher(name).matches() || CONSOLE_PATTERN.matcher(name).matches()
+                || RECORDING_PATTERN.matcher(name).matches();
+    }
+
+    private List<Path> listFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(logDir)) {
+            for (Path path : stream) {
+                if (Files.isRegularFile(path)) {
+                    files.add(path);
+                }
+            }
+        }
+        return files;
+    }
+
+    private Instant lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toInstant();
+        } catch (IOException e) {
+            return Instant.EPOCH;
         }
     }
 }
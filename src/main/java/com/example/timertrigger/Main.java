@@ -16,8 +16,13 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledExecutorService;
@@ -68,6 +73,39 @@ public class Main implements Runnable {
     @Option(names = "--epc-interval-sec", description = "Interval seconds between EPC requests in mode 2/4")
     private Integer epcIntervalSec;
 
+    @Option(names = "--merge-steps", description = "Mode 4 step merging: off, adjacent or port")
+    private String mergeSteps;
+
+    @Option(names = "--merge-max-epc", description = "Max EPC count per merged mode 4 request")
+    private Integer mergeMaxEpc;
+
+    @Option(names = "--merge-max-url-length", description = "Max URL length per merged mode 4 request")
+    private Integer mergeMaxUrlLength;
+
+    @Option(names = "--pacing", description = "EPC interval pacing in mode 2/4: fixed or adaptive")
+    private String pacing;
+
+    @Option(names = "--pacing-min-sec", description = "Lower bound of the adaptive EPC interval in seconds")
+    private Integer pacingMinSec;
+
+    @Option(names = "--pacing-max-sec", description = "Upper bound of the adaptive EPC interval in seconds")
+    private Integer pacingMaxSec;
+
+    @Option(names = "--pacing-target-latency-ms", description = "Request latency above which adaptive pacing backs off")
+    private Integer pacingTargetLatencyMs;
+
+    @Option(names = "--pacing-max-error-percent", description = "Error rate percent above which adaptive pacing stops speeding up")
+    private Integer pacingMaxErrorPercent;
+
+    @Option(names = "--phase-spread", arity = "0..1", description = "Spread the start phase and mode 2/4 steps across the interval")
+    private Boolean phaseSpread;
+
+    @Option(names = "--phase-key", description = "Key used to derive a stable start phase (default: baseUrl, deviceId, devicePort, mode and EPC list, or scheduleSteps in mode 4)")
+    private String phaseKey;
+
+    @Option(names = "--jitter-sec", description = "Maximum random delay in seconds added to each phase-spread slot")
+    private Integer jitterSec;
+
     @Option(names = "--connect-timeout-sec", description = "HTTP connect timeout seconds")
     private Integer connectTimeoutSec;
 
@@ -80,6 +118,21 @@ public class Main implements Runnable {
     @Option(names = "--log-dir", description = "Log output directory")
     private String logDir;
 
+    @Option(names = "--log-max-file-mb", description = "Roll the daily log to a new segment above this size in MB, 0 disables")
+    private Integer logMaxFileMb;
+
+    @Option(names = "--log-compress", arity = "0..1", description = "Gzip closed log segments in the background")
+    private Boolean logCompress;
+
+    @Option(names = "--log-retention-days", description = "Delete log files older than this many days, 0 disables")
+    private Integer logRetentionDays;
+
+    @Option(names = "--log-max-total-mb", description = "Delete oldest log files above this total size in MB, 0 disables")
+    private Integer logMaxTotalMb;
+
+    @Option(names = "--log-console", description = "Copy log lines to stdout: all, error or none")
+    private String logConsole;
+
     private Config config;
 
     public static void main(String[] args) {
@@ -119,10 +172,26 @@ public class Main implements Runnable {
         cliConfig.qvalue = qvalue;
         cliConfig.rfmode = rfmode;
         cliConfig.epcIntervalSec = epcIntervalSec;
+        cliConfig.mergeSteps = mergeSteps;
+        cliConfig.mergeMaxEpc = mergeMaxEpc;
+        cliConfig.mergeMaxUrlLength = mergeMaxUrlLength;
+        cliConfig.pacing = pacing;
+        cliConfig.pacingMinSec = pacingMinSec;
+        cliConfig.pacingMaxSec = pacingMaxSec;
+        cliConfig.pacingTargetLatencyMs = pacingTargetLatencyMs;
+        cliConfig.pacingMaxErrorPercent = pacingMaxErrorPercent;
+        cliConfig.phaseSpread = phaseSpread;
+        cliConfig.phaseKey = phaseKey;
+        cliConfig.jitterSec = jitterSec;
         cliConfig.connectTimeoutSec = connectTimeoutSec;
         cliConfig.requestTimeoutSec = requestTimeoutSec;
         cliConfig.shutdownWait = shutdownWait;
         cliConfig.logDir = logDir;
+        cliConfig.logMaxFileMb = logMaxFileMb;
+        cliConfig.logCompress = logCompress;
+        cliConfig.logRetentionDays = logRetentionDays;
+        cliConfig.logMaxTotalMb = logMaxTotalMb;
+        cliConfig.logConsole = logConsole;
         return merge(merged, cliConfig);
     }
 
@@ -151,10 +220,26 @@ public class Main implements Runnable {
         result.qvalue = pick(override.qvalue, base.qvalue);
         result.rfmode = pick(override.rfmode, base.rfmode);
         result.epcIntervalSec = pick(override.epcIntervalSec, base.epcIntervalSec);
+        result.mergeSteps = pick(override.mergeSteps, base.mergeSteps);
+        result.mergeMaxEpc = pick(override.mergeMaxEpc, base.mergeMaxEpc);
+        result.mergeMaxUrlLength = pick(override.mergeMaxUrlLength, base.mergeMaxUrlLength);
+        result.pacing = pick(override.pacing, base.pacing);
+        result.pacingMinSec = pick(override.pacingMinSec, base.pacingMinSec);
+        result.pacingMaxSec = pick(override.pacingMaxSec, base.pacingMaxSec);
+        result.pacingTargetLatencyMs = pick(override.pacingTargetLatencyMs, base.pacingTargetLatencyMs);
+        result.pacingMaxErrorPercent = pick(override.pacingMaxErrorPercent, base.pacingMaxErrorPercent);
+        result.phaseSpread = pick(override.phaseSpread, base.phaseSpread);
+        result.phaseKey = pick(override.phaseKey, base.phaseKey);
+        result.jitterSec = pick(override.jitterSec, base.jitterSec);
         result.connectTimeoutSec = pick(override.connectTimeoutSec, base.connectTimeoutSec);
         result.requestTimeoutSec = pick(override.requestTimeoutSec, base.requestTimeoutSec);
         result.shutdownWait = pick(override.shutdownWait, base.shutdownWait);
         result.logDir = pick(override.logDir, base.logDir);
+        result.logMaxFileMb = pick(override.logMaxFileMb, base.logMaxFileMb);
+        result.logCompress = pick(override.logCompress, base.logCompress);
+        result.logRetentionDays = pick(override.logRetentionDays, base.logRetentionDays);
+        result.logMaxTotalMb = pick(override.logMaxTotalMb, base.logMaxTotalMb);
+        result.logConsole = pick(override.logConsole, base.logConsole);
         result.scheduleSteps = pick(override.scheduleSteps, base.scheduleSteps);
         return result;
     }
@@ -186,11 +271,20 @@ public class Main implements Runnable {
             }
         }
         validatePort(config.devicePort, "devicePort");
+        if (config.jitterSec == null || config.jitterSec < 0) {
+            throw new ParameterException(new CommandLine(this), "jitter-sec must be >= 0");
+        }
+        if (config.jitterSec > 0 && !Boolean.TRUE.equals(config.phaseSpread)) {
+            throw new ParameterException(new CommandLine(this), "jitter-sec requires phase-spread");
+        }
+        validateLogging(config);
         if (config.mode == 4) {
             validateScheduleSteps(config);
+            validateMergeSteps(config);
         }
         if (config.mode == 2 || config.mode == 4) {
             validateEpcIntervals(config);
+            validatePacing(config);
         }
     }
 
@@ -202,18 +296,48 @@ public class Main implements Runnable {
         Duration intervalDuration = Duration.ofMinutes(config.intervalMin);
         Duration epcIntervalDuration = Duration.ofSeconds(config.epcIntervalSec);
         Duration roundIntervalDuration = intervalDuration;
-
-        LogWriter logger = new LogWriter(config.logDir);
+        Duration jitterDuration = Duration.ofSeconds(config.jitterSec);
+        boolean phaseSpreadEnabled = Boolean.TRUE.equals(config.phaseSpread);
+
+        LogWriter logger = new LogWriter(config.logDir,
+                config.logMaxFileMb * 1024L * 1024L,
+                Boolean.TRUE.equals(config.logCompress),
+                config.logRetentionDays,
+                config.logMaxTotalMb * 1024L * 1024L,
+                config.logConsole);
         ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
         Instant startTime = Instant.now();
         AtomicReference<Instant> endTimeRef = new AtomicReference<>(startTime.plus(runForDuration));
         AtomicReference<ScheduledFuture<?>> shutdownFutureRef = new AtomicReference<>();
         AtomicReference<Duration> expectedGapRef = new AtomicReference<>(intervalDuration);
+        AtomicReference<Instant> plannedFireRef = new AtomicReference<>(startTime);
+        TraceRecorder recorder = TraceRecorders.get();
 
         shutdownFutureRef.set(scheduleShutdown(scheduler, logger, endTimeRef.get()));
 
+        AdaptivePacer pacer = createPacer(config);
+        if (pacer != null) {
+            logger.info("Adaptive pacing enabled per devicePort: initial epc interval " + config.epcIntervalSec + "s within "
+                    + config.pacingMinSec + "s.." + config.pacingMaxSec + "s, target latency " + config.pacingTargetLatencyMs + "ms.");
+        }
+
+        ModeCursor cursor = new ModeCursor();
+        if (config.mode == 4) {
+            cursor.mode4Plan = planMode4Steps(config);
+            if (cursor.mode4Plan.size() != config.scheduleSteps.size()) {
+                logger.info("Merged " + config.scheduleSteps.size() + " schedule steps into "
+                        + cursor.mode4Plan.size() + " requests (merge-steps=" + config.mergeSteps + ").");
+            }
+        }
+
+        int groupSize = groupSize(config, cursor);
+        String phaseKey = phaseSpreadEnabled ? resolvePhaseKey(config) : null;
+        Duration slotPeriod = groupSize > 1
+                ? PhaseSpreader.stepDelay(roundIntervalDuration, epcIntervalDuration, groupSize)
+                : intervalDuration;
+        AtomicReference<Instant> slotRef = new AtomicReference<>();
+
         Runnable task = new Runnable() {
-            private final ModeCursor cursor = new ModeCursor();
             private Instant lastRunAt;
 
             @Override
@@ -221,6 +345,7 @@ public class Main implements Runnable {
                 if (scheduler.isShutdown()) {
                     return;
                 }
+                Object triggerSpan = recorder.beginTrigger();
                 Instant now = Instant.now();
                 if (lastRunAt != null) {
                     Duration gap = Duration.between(lastRunAt, now);
@@ -245,22 +370,57 @@ public class Main implements Runnable {
                 lastRunAt = now;
                 ScheduleExecution execution = nextExecution(config, cursor);
                 String epcList = String.join(",", execution.epcList);
+                String steps = formatSourceSteps(config, execution)
+                        + " phaseMs=" + Math.floorMod(now.toEpochMilli(), intervalDuration.toMillis());
                 String url = buildUrl(config, execution.devicePort, epcList);
                 long start = System.nanoTime();
+                Duration epcDelay = epcIntervalDuration;
                 try {
                     HttpURLConnection connection = openConnection(url, connectTimeout, requestTimeout);
-                    int statusCode = connection.getResponseCode();
-                    String body = readResponseBody(connection);
+                    Object connectSpan = recorder.beginHttpConnect();
+                    try {
+                        connection.connect();
+                    } catch (IOException | RuntimeException e) {
+                        recorder.endHttpConnect(connectSpan, config.mode, config.deviceId, execution.devicePort, url, e);
+                        throw e;
+                    }
+                    recorder.endHttpConnect(connectSpan, config.mode, config.deviceId, execution.devicePort, url, null);
+                    Object responseSpan = recorder.beginHttpResponse();
+                    int statusCode;
+                    try {
+                        statusCode = connection.getResponseCode();
+                    } catch (IOException | RuntimeException e) {
+                        recorder.endHttpResponse(responseSpan, config.mode, config.deviceId, execution.devicePort, -1, e);
+                        throw e;
+                    }
+                    recorder.endHttpResponse(responseSpan, config.mode, config.deviceId, execution.devicePort, statusCode, null);
+                    Object readSpan = recorder.beginHttpRead();
+                    ResponseBody response;
+                    try {
+                        response = readResponseBody(connection);
+                    } catch (IOException | RuntimeException e) {
+                        recorder.endHttpRead(readSpan, config.mode, config.deviceId, execution.devicePort, 0, e);
+                        throw e;
+                    }
+                    recorder.endHttpRead(readSpan, config.mode, config.deviceId, execution.devicePort, response.bytes, null);
+                    String body = response.text;
                     long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+                    epcDelay = pace(pacer, logger, execution.devicePort, elapsedMs, statusCode < 500 && statusCode != 429, epcDelay);
                     String snippet = body.length() > 200 ? body.substring(0, 200) + "..." : body;
-                    String logMessage = String.format("mode=%d interval=%dmin devicePort=%d epcList=%s url=%s status=%d elapsedMs=%d response=%s",
-                            config.mode, config.intervalMin, execution.devicePort, epcList, url, statusCode, elapsedMs, snippet);
+                    String logMessage = String.format("mode=%d interval=%dmin devicePort=%d%s epcList=%s url=%s status=%d elapsedMs=%d%s response=%s",
+                            config.mode, config.intervalMin, execution.devicePort, steps, epcList, url, statusCode, elapsedMs,
+                            formatPacing(pacer, epcDelay), snippet);
                     logger.info(logMessage);
                 } catch (Exception e) {
                     long elapsedMs = (System.nanoTime() - start) / 1_000_000;
-                    String logMessage = String.format("mode=%d interval=%dmin devicePort=%d epcList=%s url=%s error=%s elapsedMs=%d",
-                            config.mode, config.intervalMin, execution.devicePort, epcList, url, e.getMessage(), elapsedMs);
+                    epcDelay = pace(pacer, logger, execution.devicePort, elapsedMs, false, epcDelay);
+                    String logMessage = String.format("mode=%d interval=%dmin devicePort=%d%s epcList=%s url=%s error=%s elapsedMs=%d%s",
+                            config.mode, config.intervalMin, execution.devicePort, steps, epcList, url, e.getMessage(), elapsedMs,
+                            formatPacing(pacer, epcDelay));
                     logger.error(logMessage);
+                } finally {
+                    recorder.endTrigger(triggerSpan, config.mode, config.deviceId, execution.devicePort,
+                            plannedFireRef.get().toEpochMilli(), now.toEpochMilli());
                 }
 
                 if (Instant.now().isAfter(endTimeRef.get())) {
@@ -269,14 +429,47 @@ public class Main implements Runnable {
                     return;
                 }
 
-                Duration nextDelay = computeNextDelay(config, execution, intervalDuration, epcIntervalDuration, roundIntervalDuration);
+                Duration nextDelay;
+                if (phaseSpreadEnabled) {
+                    Instant completedAt = Instant.now();
+                    Instant notBefore = slotRef.get().plus(slotPeriod);
+                    if (pacer != null && completedAt.plus(epcDelay).isAfter(notBefore)) {
+                        notBefore = completedAt.plus(epcDelay);
+                    }
+                    if (completedAt.isAfter(notBefore)) {
+                        notBefore = completedAt;
+                    }
+                    Instant slot = PhaseSpreader.nextSlot(phaseKey, slotPeriod, notBefore);
+                    slotRef.set(slot);
+                    Instant fireAt = slot.plus(PhaseSpreader.jitter(jitterDuration));
+                    nextDelay = Duration.between(completedAt, fireAt);
+                    plannedFireRef.set(fireAt);
+                } else {
+                    nextDelay = computeNextDelay(config, execution, intervalDuration, epcDelay, roundIntervalDuration);
+                    plannedFireRef.set(Instant.now().plus(nextDelay));
+                }
                 expectedGapRef.set(nextDelay);
                 scheduler.schedule(this, nextDelay.toMillis(), TimeUnit.MILLISECONDS);
             }
         };
 
-        expectedGapRef.set(Duration.ZERO);
-        scheduler.schedule(task, 0, TimeUnit.MILLISECONDS);
+        Duration initialDelay = Duration.ZERO;
+        Instant scheduledAt = Instant.now();
+        Instant firstFire = scheduledAt;
+        if (phaseSpreadEnabled) {
+            Instant slot = PhaseSpreader.nextSlot(phaseKey, slotPeriod, scheduledAt);
+            slotRef.set(slot);
+            firstFire = slot.plus(PhaseSpreader.jitter(jitterDuration));
+            initialDelay = Duration.between(scheduledAt, firstFire);
+            logger.info("Phase spread enabled: key=" + phaseKey
+                    + " slotPeriodMs=" + slotPeriod.toMillis()
+                    + " slotPhaseMs=" + PhaseSpreader.phaseOffset(phaseKey, slotPeriod).toMillis()
+                    + " initialDelayMs=" + initialDelay.toMillis()
+                    + " jitterSec=" + config.jitterSec + ".");
+        }
+        expectedGapRef.set(initialDelay);
+        plannedFireRef.set(firstFire);
+        scheduler.schedule(task, initialDelay.toMillis(), TimeUnit.MILLISECONDS);
 
         try {
             while (true) {
@@ -298,6 +491,76 @@ public class Main implements Runnable {
             Thread.currentThread().interrupt();
             scheduler.shutdownNow();
         }
+        logger.close();
+    }
+
+    private String resolvePhaseKey(Config config) {
+        if (config.phaseKey != null && !config.phaseKey.trim().isEmpty()) {
+            return config.phaseKey.trim();
+        }
+        StringBuilder key = new StringBuilder()
+                .append(config.baseUrl).append('|')
+                .append(config.deviceId).append('|')
+                .append(config.devicePort).append('|')
+                .append(config.mode).append('|');
+        switch (config.mode) {
+            case 1:
+                key.append(resolveSingleEpc(config));
+                break;
+            case 4:
+                for (int i = 0; i < config.scheduleSteps.size(); i++) {
+                    ScheduleStep step = config.scheduleSteps.get(i);
+                    if (i > 0) {
+                        key.append(';');
+                    }
+                    key.append(step.devicePort).append(':').append(String.join(",", step.epcList));
+                }
+                break;
+            default:
+                key.append(String.join(",", config.epcList));
+                break;
+        }
+        return key.toString();
+    }
+
+    private int groupSize(Config config, ModeCursor cursor) {
+        switch (config.mode) {
+            case 2:
+                return config.epcList.size();
+            case 4:
+                return cursor.mode4Plan.size();
+            default:
+                return 1;
+        }
+    }
+
+    private AdaptivePacer createPacer(Config config) {
+        if (!"adaptive".equalsIgnoreCase(config.pacing) || (config.mode != 2 && config.mode != 4)) {
+            return null;
+        }
+        return new AdaptivePacer(
+                Duration.ofSeconds(config.pacingMinSec).toMillis(),
+                Duration.ofSeconds(config.pacingMaxSec).toMillis(),
+                Duration.ofSeconds(config.epcIntervalSec).toMillis(),
+                config.pacingTargetLatencyMs,
+                config.pacingMaxErrorPercent / 100.0);
+    }
+
+    private Duration pace(AdaptivePacer pacer, LogWriter logger, int devicePort, long elapsedMs, boolean success, Duration fallback) {
+        if (pacer == null) {
+            return fallback;
+        }
+        AdaptivePacer.Adjustment adjustment = pacer.record(devicePort, elapsedMs, success);
+        if (adjustment.changed()) {
+            logger.info(String.format("Adaptive pacing devicePort=%d epcInterval=%dms -> %dms reason=%s latencyMs=%d errorRate=%.2f",
+                    adjustment.devicePort, adjustment.previousIntervalMs, adjustment.intervalMs, adjustment.reason,
+                    adjustment.latencyMs, adjustment.errorRate));
+        }
+        return Duration.ofMillis(adjustment.intervalMs);
+    }
+
+    private String formatPacing(AdaptivePacer pacer, Duration epcDelay) {
+        return pacer == null ? "" : " pacingMs=" + epcDelay.toMillis();
     }
 
     private ScheduledFuture<?> scheduleShutdown(ScheduledExecutorService scheduler, LogWriter logger, Instant endTime) {
@@ -381,6 +644,19 @@ public class Main implements Runnable {
         }
     }
 
+    private void validateMergeSteps(Config config) {
+        String strategy = mergeStrategy(config);
+        if (!strategy.equals("off") && !strategy.equals("adjacent") && !strategy.equals("port")) {
+            throw new ParameterException(new CommandLine(this), "merge-steps must be one of off, adjacent, port");
+        }
+        if (config.mergeMaxEpc == null || config.mergeMaxEpc <= 0) {
+            throw new ParameterException(new CommandLine(this), "merge-max-epc must be > 0");
+        }
+        if (config.mergeMaxUrlLength == null || config.mergeMaxUrlLength <= 0) {
+            throw new ParameterException(new CommandLine(this), "merge-max-url-length must be > 0");
+        }
+    }
+
     private void validatePort(Integer port, String name) {
         if (port == null || port < 0) {
             throw new ParameterException(new CommandLine(this), name + " must be >= 0");
@@ -393,6 +669,43 @@ public class Main implements Runnable {
         }
     }
 
+    private void validateLogging(Config config) {
+        if (config.logMaxFileMb == null || config.logMaxFileMb < 0) {
+            throw new ParameterException(new CommandLine(this), "log-max-file-mb must be >= 0");
+        }
+        if (config.logRetentionDays == null || config.logRetentionDays < 0) {
+            throw new ParameterException(new CommandLine(this), "log-retention-days must be >= 0");
+        }
+        if (config.logMaxTotalMb == null || config.logMaxTotalMb < 0) {
+            throw new ParameterException(new CommandLine(this), "log-max-total-mb must be >= 0");
+        }
+        String console = config.logConsole == null ? "" : config.logConsole.trim().toLowerCase();
+        if (!console.equals("all") && !console.equals("error") && !console.equals("none")) {
+            throw new ParameterException(new CommandLine(this), "log-console must be one of all, error, none");
+        }
+    }
+
+    private void validatePacing(Config config) {
+        if (config.pacing == null || !(config.pacing.equalsIgnoreCase("fixed") || config.pacing.equalsIgnoreCase("adaptive"))) {
+            throw new ParameterException(new CommandLine(this), "pacing must be fixed or adaptive");
+        }
+        if (!config.pacing.equalsIgnoreCase("adaptive")) {
+            return;
+        }
+        if (config.pacingMinSec == null || config.pacingMinSec <= 0) {
+            throw new ParameterException(new CommandLine(this), "pacing-min-sec must be > 0");
+        }
+        if (config.pacingMaxSec == null || config.pacingMaxSec < config.pacingMinSec) {
+            throw new ParameterException(new CommandLine(this), "pacing-max-sec must be >= pacing-min-sec");
+        }
+        if (config.pacingTargetLatencyMs == null || config.pacingTargetLatencyMs <= 0) {
+            throw new ParameterException(new CommandLine(this), "pacing-target-latency-ms must be > 0");
+        }
+        if (config.pacingMaxErrorPercent == null || config.pacingMaxErrorPercent < 0 || config.pacingMaxErrorPercent > 100) {
+            throw new ParameterException(new CommandLine(this), "pacing-max-error-percent must be between 0 and 100");
+        }
+    }
+
     private String buildUrl(Config config, int devicePort, String epcList) {
         String base = config.baseUrl.endsWith("/") ? config.baseUrl.substring(0, config.baseUrl.length() - 1) : config.baseUrl;
         return String.format("%s/tempsense/start?deviceId=%d&devicePort=%d&epcList=%s&duration=%d&qValue=%d&rfMode=%d",
@@ -414,12 +727,12 @@ public class Main implements Runnable {
         return connection;
     }
 
-    private String readResponseBody(HttpURLConnection connection) throws IOException {
+    private ResponseBody readResponseBody(HttpURLConnection connection) throws IOException {
         InputStream inputStream = null;
         try {
             inputStream = connection.getResponseCode() >= 400 ? connection.getErrorStream() : connection.getInputStream();
             if (inputStream == null) {
-                return "";
+                return new ResponseBody("", 0);
             }
             ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
             byte[] buffer = new byte[4096];
@@ -427,7 +740,7 @@ public class Main implements Runnable {
             while ((read = inputStream.read(buffer)) != -1) {
                 outputStream.write(buffer, 0, read);
             }
-            return outputStream.toString("UTF-8");
+            return new ResponseBody(outputStream.toString("UTF-8"), outputStream.size());
         } finally {
             if (inputStream != null) {
                 inputStream.close();
@@ -435,20 +748,37 @@ public class Main implements Runnable {
         }
     }
 
+    private static class ResponseBody {
+        private final String text;
+        private final long bytes;
+
+        private ResponseBody(String text, long bytes) {
+            this.text = text;
+            this.bytes = bytes;
+        }
+    }
+
     private static class ModeCursor {
         private int mode2Index;
         private int mode4StepIndex;
+        private List<ScheduleExecution> mode4Plan;
     }
 
     private static class ScheduleExecution {
         private final int devicePort;
         private final List<String> epcList;
         private final boolean endOfGroup;
+        private final List<Integer> sourceSteps;
 
         private ScheduleExecution(int devicePort, List<String> epcList, boolean endOfGroup) {
+            this(devicePort, epcList, endOfGroup, Collections.<Integer>emptyList());
+        }
+
+        private ScheduleExecution(int devicePort, List<String> epcList, boolean endOfGroup, List<Integer> sourceSteps) {
             this.devicePort = devicePort;
             this.epcList = epcList;
             this.endOfGroup = endOfGroup;
+            this.sourceSteps = sourceSteps;
         }
     }
 
@@ -479,15 +809,91 @@ public class Main implements Runnable {
     }
 
     private ScheduleExecution nextMode4Execution(Config config, ModeCursor cursor) {
-        List<ScheduleStep> steps = config.scheduleSteps;
-        int stepIndex = cursor.mode4StepIndex % steps.size();
-        ScheduleStep step = steps.get(stepIndex);
+        List<ScheduleExecution> plan = cursor.mode4Plan;
+        int stepIndex = cursor.mode4StepIndex % plan.size();
         cursor.mode4StepIndex = stepIndex + 1;
-        boolean endOfGroup = cursor.mode4StepIndex >= steps.size();
-        if (endOfGroup) {
+        if (cursor.mode4StepIndex >= plan.size()) {
             cursor.mode4StepIndex = 0;
         }
-        return new ScheduleExecution(step.devicePort, step.epcList, endOfGroup);
+        return plan.get(stepIndex);
+    }
+
+    private List<ScheduleExecution> planMode4Steps(Config config) {
+        List<ScheduleStep> steps = config.scheduleSteps;
+        String strategy = mergeStrategy(config);
+        List<List<Integer>> batches = new ArrayList<>();
+        Map<Integer, List<Integer>> openBatchByPort = new HashMap<>();
+        List<Integer> previous = null;
+        for (int i = 0; i < steps.size(); i++) {
+            ScheduleStep step = steps.get(i);
+            List<Integer> target = null;
+            if (strategy.equals("adjacent")) {
+                if (previous != null && steps.get(previous.get(0)).devicePort.equals(step.devicePort)) {
+                    target = previous;
+                }
+            } else if (strategy.equals("port")) {
+                target = openBatchByPort.get(step.devicePort);
+            }
+            if (target != null && !fitsMergeLimits(config, steps, target, step)) {
+                target = null;
+            }
+            if (target == null) {
+                target = new ArrayList<>();
+                batches.add(target);
+                openBatchByPort.put(step.devicePort, target);
+            }
+            target.add(i);
+            previous = target;
+        }
+
+        List<ScheduleExecution> plan = new ArrayList<>();
+        for (int i = 0; i < batches.size(); i++) {
+            List<Integer> batch = batches.get(i);
+            int devicePort = steps.get(batch.get(0)).devicePort;
+            List<String> epcs = batch.size() == 1
+                    ? steps.get(batch.get(0)).epcList
+                    : new ArrayList<>(mergedEpcs(steps, batch, null));
+            plan.add(new ScheduleExecution(devicePort, epcs, i == batches.size() - 1, Collections.unmodifiableList(batch)));
+        }
+        return plan;
+    }
+
+    private boolean fitsMergeLimits(Config config, List<ScheduleStep> steps, List<Integer> batch, ScheduleStep candidate) {
+        Set<String> epcs = mergedEpcs(steps, batch, candidate);
+        if (epcs.size() > config.mergeMaxEpc) {
+            return false;
+        }
+        String url = buildUrl(config, candidate.devicePort, String.join(",", epcs));
+        return url.length() <= config.mergeMaxUrlLength;
+    }
+
+    private Set<String> mergedEpcs(List<ScheduleStep> steps, List<Integer> batch, ScheduleStep candidate) {
+        Set<String> epcs = new LinkedHashSet<>();
+        for (Integer index : batch) {
+            epcs.addAll(steps.get(index).epcList);
+        }
+        if (candidate != null) {
+            epcs.addAll(candidate.epcList);
+        }
+        return epcs;
+    }
+
+    private String mergeStrategy(Config config) {
+        return config.mergeSteps == null ? "off" : config.mergeSteps.trim().toLowerCase();
+    }
+
+    private String formatSourceSteps(Config config, ScheduleExecution execution) {
+        if (mergeStrategy(config).equals("off") || execution.sourceSteps.isEmpty()) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder(" steps=");
+        for (int i = 0; i < execution.sourceSteps.size(); i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(execution.sourceSteps.get(i));
+        }
+        return builder.toString();
     }
 
     private Duration computeNextDelay(Config config,
@@ -0,0 +1,48 @@
+package com.example.timertrigger;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+
+public final class PhaseSpreader {
+    private PhaseSpreader() {
+    }
+
+    public static Duration phaseOffset(String key, Duration period) {
+        long periodMs = period.toMillis();
+        if (key == null || periodMs <= 0) {
+            return Duration.ZERO;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(key.getBytes(StandardCharsets.UTF_8));
+        return Duration.ofMillis(crc.getValue() % periodMs);
+    }
+
+    public static Instant nextSlot(String key, Duration period, Instant notBefore) {
+        long periodMs = period.toMillis();
+        if (periodMs <= 0) {
+            return notBefore;
+        }
+        long offsetMs = phaseOffset(key, period).toMillis();
+        long notBeforeMs = notBefore.toEpochMilli();
+        return Instant.ofEpochMilli(notBeforeMs + Math.floorMod(offsetMs - notBeforeMs, periodMs));
+    }
+
+    public static Duration stepDelay(Duration roundInterval, Duration stepInterval, int groupSize) {
+        if (groupSize <= 1) {
+            return roundInterval;
+        }
+        Duration cycle = roundInterval.plus(stepInterval.multipliedBy(groupSize - 1));
+        return cycle.dividedBy(groupSize);
+    }
+
+    public static Duration jitter(Duration maxJitter) {
+        long maxMs = maxJitter.toMillis();
+        if (maxMs <= 0) {
+            return Duration.ZERO;
+        }
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(maxMs + 1));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.timertrigger;
+
+public interface TraceRecorder {
+    TraceRecorder NOOP = new TraceRecorder() {
+        @Override
+        public Object beginTrigger() {
+            return null;
+        }
+
+        @Override
+        public void endTrigger(Object span, int mode, int deviceId, int devicePort, long plannedEpochMs, long actualEpochMs) {
+        }
+
+        @Override
+        public Object beginHttpConnect() {
+            return null;
+        }
+
+        @Override
+        public void endHttpConnect(Object span, int mode, int deviceId, int devicePort, String url, Throwable failure) {
+        }
+
+        @Override
+        public Object beginHttpResponse() {
+            return null;
+        }
+
+        @Override
+        public void endHttpResponse(Object span, int mode, int deviceId, int devicePort, int status, Throwable failure) {
+        }
+
+        @Override
+        public Object beginHttpRead() {
+            return null;
+        }
+
+        @Override
+        public void endHttpRead(Object span, int mode, int deviceId, int devicePort, long bytes, Throwable failure) {
+        }
+
+        @Override
+        public Object beginLogWrite() {
+            return null;
+        }
+
+        @Override
+        public void endLogWrite(Object span, String file, long bytes, Throwable failure) {
+        }
+    };
+
+    Object beginTrigger();
+
+    void endTrigger(Object span, int mode, int deviceId, int devicePort, long plannedEpochMs, long actualEpochMs);
+
+    Object beginHttpConnect();
+
+    void endHttpConnect(Object span, int mode, int deviceId, int devicePort, String url, Throwable failure);
+
+    Object beginHttpResponse();
+
+    void endHttpResponse(Object span, int mode, int deviceId, int devicePort, int status, Throwable failure);
+
+    Object beginHttpRead();
+
+    void endHttpRead(Object span, int mode, int deviceId, int devicePort, long bytes, Throwable failure);
+
+    Object beginLogWrite();
+
+    void endLogWrite(Object span, String file, long bytes, Throwable failure);
+}
@@ -0,0 +1,26 @@
+package com.example.timertrigger;
+
+public final class TraceRecorders {
+    private static final String JFR_RECORDER_CLASS = "com.example.timertrigger.JfrTraceRecorder";
+    private static final TraceRecorder INSTANCE = load();
+
+    private TraceRecorders() {
+    }
+
+    public static TraceRecorder get() {
+        return INSTANCE;
+    }
+
+    private static TraceRecorder load() {
+        try {
+            Class<?> flightRecorder = Class.forName("jdk.jfr.FlightRecorder");
+            Object available = flightRecorder.getMethod("isAvailable").invoke(null);
+            if (!Boolean.TRUE.equals(available)) {
+                return TraceRecorder.NOOP;
+            }
+            return (TraceRecorder) Class.forName(JFR_RECORDER_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return TraceRecorder.NOOP;
+        }
+    }
+}
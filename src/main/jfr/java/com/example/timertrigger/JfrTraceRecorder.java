@@ -0,0 +1,238 @@
+package com.example.timertrigger;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import jdk.jfr.Timestamp;
+
+public class JfrTraceRecorder implements TraceRecorder {
+    @Override
+    public Object beginTrigger() {
+        return begin(new TriggerEvent());
+    }
+
+    @Override
+    public void endTrigger(Object span, int mode, int deviceId, int devicePort, long plannedEpochMs, long actualEpochMs) {
+        TriggerEvent event = (TriggerEvent) span;
+        if (!shouldCommit(event)) {
+            return;
+        }
+        event.mode = mode;
+        event.deviceId = deviceId;
+        event.devicePort = devicePort;
+        event.plannedFireTime = plannedEpochMs;
+        event.actualFireTime = actualEpochMs;
+        event.fireDelay = actualEpochMs - plannedEpochMs;
+        event.commit();
+    }
+
+    @Override
+    public Object beginHttpConnect() {
+        return begin(new HttpConnectEvent());
+    }
+
+    @Override
+    public void endHttpConnect(Object span, int mode, int deviceId, int devicePort, String url, Throwable failure) {
+        HttpConnectEvent event = (HttpConnectEvent) span;
+        if (!shouldCommit(event)) {
+            return;
+        }
+        event.mode = mode;
+        event.deviceId = deviceId;
+        event.devicePort = devicePort;
+        event.url = url;
+        event.failure = describe(failure);
+        event.commit();
+    }
+
+    @Override
+    public Object beginHttpResponse() {
+        return begin(new HttpResponseEvent());
+    }
+
+    @Override
+    public void endHttpResponse(Object span, int mode, int deviceId, int devicePort, int status, Throwable failure) {
+        HttpResponseEvent event = (HttpResponseEvent) span;
+        if (!shouldCommit(event)) {
+            return;
+        }
+        event.mode = mode;
+        event.deviceId = deviceId;
+        event.devicePort = devicePort;
+        event.status = status;
+        event.failure = describe(failure);
+        event.commit();
+    }
+
+    @Override
+    public Object beginHttpRead() {
+        return begin(new HttpReadEvent());
+    }
+
+    @Override
+    public void endHttpRead(Object span, int mode, int deviceId, int devicePort, long bytes, Throwable failure) {
+        HttpReadEvent event = (HttpReadEvent) span;
+        if (!shouldCommit(event)) {
+            return;
+        }
+        event.mode = mode;
+        event.deviceId = deviceId;
+        event.devicePort = devicePort;
+        event.bytes = bytes;
+        event.failure = describe(failure);
+        event.commit();
+    }
+
+    @Override
+    public Object beginLogWrite() {
+        return begin(new LogWriteEvent());
+    }
+
+    @Override
+    public void endLogWrite(Object span, String file, long bytes, Throwable failure) {
+        LogWriteEvent event = (LogWriteEvent) span;
+        if (!shouldCommit(event)) {
+            return;
+        }
+        event.file = file;
+        event.bytes = bytes;
+        event.failure = describe(failure);
+        event.commit();
+    }
+
+    private static String describe(Throwable failure) {
+        return failure == null ? null : failure.toString();
+    }
+
+    private static Event begin(Event event) {
+        event.begin();
+        return event;
+    }
+
+    private static boolean shouldCommit(Event event) {
+        event.end();
+        return event.shouldCommit();
+    }
+
+    @Name("com.example.timertrigger.Trigger")
+    @Label("Trigger")
+    @Description("One scheduled request, from scheduler wake-up until the result is logged")
+    @Category("Timer Trigger")
+    @StackTrace(false)
+    static class TriggerEvent extends Event {
+        @Label("Mode")
+        int mode;
+
+        @Label("Device ID")
+        int deviceId;
+
+        @Label("Device Port")
+        int devicePort;
+
+        @Label("Planned Fire Time")
+        @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+        long plannedFireTime;
+
+        @Label("Actual Fire Time")
+        @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+        long actualFireTime;
+
+        @Label("Fire Delay")
+        @Timespan(Timespan.MILLISECONDS)
+        long fireDelay;
+    }
+
+    @Name("com.example.timertrigger.HttpConnect")
+    @Label("HTTP Connect")
+    @Description("DNS lookup and TCP connect to the tempsense host")
+    @Category({"Timer Trigger", "HTTP"})
+    @StackTrace(false)
+    static class HttpConnectEvent extends Event {
+        @Label("Mode")
+        int mode;
+
+        @Label("Device ID")
+        int deviceId;
+
+        @Label("Device Port")
+        int devicePort;
+
+        @Label("URL")
+        String url;
+
+        @Label("Failure")
+        @Description("Exception type and message when the phase failed")
+        String failure;
+    }
+
+    @Name("com.example.timertrigger.HttpResponse")
+    @Label("HTTP Response")
+    @Description("Sending the request and waiting for the response status line")
+    @Category({"Timer Trigger", "HTTP"})
+    @StackTrace(false)
+    static class HttpResponseEvent extends Event {
+        @Label("Mode")
+        int mode;
+
+        @Label("Device ID")
+        int deviceId;
+
+        @Label("Device Port")
+        int devicePort;
+
+        @Label("Status")
+        @Description("HTTP status code, -1 when no response was received")
+        int status;
+
+        @Label("Failure")
+        @Description("Exception type and message when the phase failed")
+        String failure;
+    }
+
+    @Name("com.example.timertrigger.HttpRead")
+    @Label("HTTP Body Read")
+    @Description("Reading the response body")
+    @Category({"Timer Trigger", "HTTP"})
+    @StackTrace(false)
+    static class HttpReadEvent extends Event {
+        @Label("Mode")
+        int mode;
+
+        @Label("Device ID")
+        int deviceId;
+
+        @Label("Device Port")
+        int devicePort;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Failure")
+        @Description("Exception type and message when the phase failed")
+        String failure;
+    }
+
+    @Name("com.example.timertrigger.LogWrite")
+    @Label("Log Write")
+    @Description("Appending one line to the daily log file")
+    @Category("Timer Trigger")
+    @StackTrace(false)
+    static class LogWriteEvent extends Event {
+        @Label("File")
+        String file;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Failure")
+        @Description("Exception type and message when the phase failed")
+        String failure;
+    }
+}
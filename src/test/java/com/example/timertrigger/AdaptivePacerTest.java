@@ -0,0 +1,55 @@
+package com.example.timertrigger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdaptivePacerTest {
+    @Test
+    void backsOffMultiplicativelyOnErrorAndSlowResponses() {
+        AdaptivePacer pacer = new AdaptivePacer(1000, 10000, 2000, 500, 0.5);
+
+        assertEquals(4000, pacer.record(1, 100, false).intervalMs);
+        assertEquals(8000, pacer.record(1, 900, true).intervalMs);
+        assertEquals(10000, pacer.record(1, 900, true).intervalMs);
+    }
+
+    @Test
+    void speedsUpAdditivelyWithinBounds() {
+        AdaptivePacer pacer = new AdaptivePacer(1000, 10000, 2000, 500, 0.5);
+
+        assertEquals(1500, pacer.record(1, 100, true).intervalMs);
+        assertEquals(1000, pacer.record(1, 100, true).intervalMs);
+        AdaptivePacer.Adjustment atFloor = pacer.record(1, 100, true);
+        assertEquals(1000, atFloor.intervalMs);
+        assertFalse(atFloor.changed());
+    }
+
+    @Test
+    void holdsIntervalWhileErrorRateIsHigh() {
+        AdaptivePacer pacer = new AdaptivePacer(1000, 10000, 2000, 500, 0.1);
+
+        assertEquals(4000, pacer.record(1, 100, false).intervalMs);
+        AdaptivePacer.Adjustment held = pacer.record(1, 100, true);
+        assertEquals("errorRate", held.reason);
+        assertEquals(4000, held.intervalMs);
+    }
+
+    @Test
+    void tracksDevicePortsIndependently() {
+        AdaptivePacer pacer = new AdaptivePacer(1000, 10000, 2000, 500, 0.5);
+
+        pacer.record(1, 100, false);
+
+        assertEquals(4000, pacer.currentIntervalMs(1));
+        assertEquals(2000, pacer.currentIntervalMs(2));
+    }
+
+    @Test
+    void rejectsInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptivePacer(0, 1000, 1000, 500, 0.1));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptivePacer(2000, 1000, 1000, 500, 0.1));
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.timertrigger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogWriterTest {
+    @TempDir
+    Path logDir;
+
+    @Test
+    void rollsSegmentsBySizeAndCompressesClosedOnes() {
+        String today = today();
+        LogWriter writer = new LogWriter(logDir.toString(), 100, true, 0, 0, "none");
+        for (int i = 0; i < 5; i++) {
+            writer.info("message number " + i + " with some padding to exceed the limit");
+        }
+        writer.close();
+
+        assertTrue(Files.exists(logDir.resolve(today + ".txt.gz")));
+        assertTrue(Files.exists(logDir.resolve(today + ".3.txt.gz")));
+        assertTrue(Files.exists(logDir.resolve(today + ".4.txt")));
+        assertFalse(Files.exists(logDir.resolve(today + ".txt")));
+    }
+
+    @Test
+    void removesOnlyOwnGzipLeftovers() throws IOException {
+        Path leftover = writeFile("2024-01-02.txt.gz.tmp", 10, Duration.ZERO);
+        Path foreign = writeFile("upload.tmp", 10, Duration.ZERO);
+
+        LogWriter writer = new LogWriter(logDir.toString(), 0, true, 0, 0, "none");
+        writer.info("trigger housekeeping");
+        writer.close();
+
+        assertFalse(Files.exists(leftover));
+        assertTrue(Files.exists(foreign));
+    }
+
+    @Test
+    void continuesAfterLatestSegmentOnRestart() throws IOException {
+        String today = today();
+        Files.write(logDir.resolve(today + ".txt.gz"), new byte[0]);
+        Files.write(logDir.resolve(today + ".1.txt"), new byte[0]);
+
+        LogWriter writer = new LogWriter(logDir.toString(), 1024, false, 0, 0, "none");
+        writer.info("after restart");
+        writer.close();
+
+        assertTrue(Files.size(logDir.resolve(today + ".1.txt")) > 0);
+
+        Files.write(logDir.resolve(today + ".2.txt.gz"), new byte[0]);
+        LogWriter restarted = new LogWriter(logDir.toString(), 1024, false, 0, 0, "none");
+        restarted.info("after second restart");
+        restarted.close();
+
+        assertTrue(Files.exists(logDir.resolve(today + ".3.txt")));
+    }
+
+    @Test
+    void deletesExpiredAndOverBudgetFiles() throws IOException {
+        String today = today();
+        Path expired = writeFile("2000-01-01.txt.gz", 10, Duration.ofDays(400));
+        Path oldest = writeFile("console-20240101-000000.out.gz", 600, Duration.ofDays(3));
+        Path newer = writeFile("2024-01-02.txt.gz", 600, Duration.ofDays(2));
+        Path recording = writeFile("hotspot-pid-1-id-1-2000_01_01_00_00_00.jfr", 10, Duration.ofDays(400));
+        Path unrelated = writeFile("notes.md", 5000, Duration.ofDays(400));
+
+        LogWriter writer = new LogWriter(logDir.toString(), 0, false, 30, 1000, "none");
+        writer.info("trigger housekeeping");
+        writer.close();
+
+        assertFalse(Files.exists(expired));
+        assertFalse(Files.exists(oldest));
+        assertFalse(Files.exists(recording));
+        assertTrue(Files.exists(newer));
+        assertTrue(Files.exists(unrelated));
+        assertTrue(Files.exists(logDir.resolve(today + ".txt")));
+    }
+
+    private String today() {
+        return LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+    }
+
+    private Path writeFile(String name, int size, Duration age) throws IOException {
+        Path path = logDir.resolve(name);
+        Files.write(path, new byte[size]);
+        Files.setLastModifiedTime(path, FileTime.from(Instant.now().minus(age)));
+        return path;
+    }
+}
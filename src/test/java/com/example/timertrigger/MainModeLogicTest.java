@@ -2,11 +2,13 @@ package com.example.timertrigger;
 
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class MainModeLogicTest {
@@ -91,4 +93,97 @@ class MainModeLogicTest {
         Throwable cause = ex.getCause();
         assertEquals("mode 4 requires scheduleSteps in config", cause.getMessage());
     }
+
+    @Test
+    void mode4MergeOffKeepsOneRequestPerStep() throws Exception {
+        Config config = mode4Config(step(0, "A"), step(0, "B"), step(1, "C"));
+
+        List<?> plan = planMode4Steps(config);
+
+        assertEquals(3, plan.size());
+        assertEquals(Arrays.asList("A"), field(plan.get(0), "epcList"));
+        assertEquals(Arrays.asList(2), field(plan.get(2), "sourceSteps"));
+    }
+
+    @Test
+    void mode4MergeOffKeepsRepeatedEpcsWithinStep() throws Exception {
+        Config config = mode4Config(step(0, "A", "A", "B"));
+
+        List<?> plan = planMode4Steps(config);
+
+        assertEquals(Arrays.asList("A", "A", "B"), field(plan.get(0), "epcList"));
+    }
+
+    @Test
+    void mode4MergeAdjacentCombinesConsecutiveSamePortSteps() throws Exception {
+        Config config = mode4Config(step(0, "A"), step(0, "B"), step(1, "C"), step(0, "D"));
+        config.mergeSteps = "adjacent";
+
+        List<?> plan = planMode4Steps(config);
+
+        assertEquals(3, plan.size());
+        assertEquals(Arrays.asList("A", "B"), field(plan.get(0), "epcList"));
+        assertEquals(Arrays.asList(0, 1), field(plan.get(0), "sourceSteps"));
+        assertEquals(Arrays.asList("D"), field(plan.get(2), "epcList"));
+        assertEquals(true, field(plan.get(2), "endOfGroup"));
+    }
+
+    @Test
+    void mode4MergePortRespectsEpcLimit() throws Exception {
+        Config config = mode4Config(step(0, "A"), step(1, "C"), step(0, "B"), step(0, "D"));
+        config.mergeSteps = "port";
+        config.mergeMaxEpc = 2;
+
+        List<?> plan = planMode4Steps(config);
+
+        assertEquals(3, plan.size());
+        assertEquals(Arrays.asList("A", "B"), field(plan.get(0), "epcList"));
+        assertEquals(Arrays.asList(0, 2), field(plan.get(0), "sourceSteps"));
+        assertEquals(Arrays.asList(1), field(plan.get(1), "sourceSteps"));
+        assertEquals(Arrays.asList(3), field(plan.get(2), "sourceSteps"));
+    }
+
+    @Test
+    void defaultPhaseKeyDistinguishesEpcLists() throws Exception {
+        Config first = new Config();
+        first.mode = 3;
+        first.epcList = Arrays.asList("EPC-1");
+        Config second = new Config();
+        second.mode = 3;
+        second.epcList = Arrays.asList("EPC-2");
+        Config steps = mode4Config(step(0, "EPC-1"), step(1, "EPC-2"));
+
+        Method resolvePhaseKey = Main.class.getDeclaredMethod("resolvePhaseKey", Config.class);
+        resolvePhaseKey.setAccessible(true);
+        Main main = new Main();
+
+        assertNotEquals(resolvePhaseKey.invoke(main, first), resolvePhaseKey.invoke(main, second));
+        assertEquals("http://localhost:9055|1|0|4|0:EPC-1;1:EPC-2", resolvePhaseKey.invoke(main, steps));
+    }
+
+    private Config mode4Config(ScheduleStep... steps) {
+        Config config = new Config();
+        config.mode = 4;
+        config.scheduleSteps = Arrays.asList(steps);
+        return config;
+    }
+
+    private ScheduleStep step(int devicePort, String... epcs) {
+        ScheduleStep step = new ScheduleStep();
+        step.devicePort = devicePort;
+        step.epcList = Arrays.asList(epcs);
+        return step;
+    }
+
+    private List<?> planMode4Steps(Config config) throws Exception {
+        Method planMode4Steps = Main.class.getDeclaredMethod("planMode4Steps", Config.class);
+        planMode4Steps.setAccessible(true);
+        return (List<?>) planMode4Steps.invoke(new Main(), config);
+    }
+
+    private Object field(Object target, String name) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(target);
+    }
 }
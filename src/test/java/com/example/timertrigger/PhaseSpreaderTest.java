@@ -0,0 +1,78 @@
+package com.example.timertrigger;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PhaseSpreaderTest {
+    @Test
+    void phaseOffsetIsStableAndWithinPeriod() {
+        Duration period = Duration.ofMinutes(10);
+
+        Duration first = PhaseSpreader.phaseOffset("http://localhost:9055|1|0|3|A,B", period);
+        Duration again = PhaseSpreader.phaseOffset("http://localhost:9055|1|0|3|A,B", period);
+        Duration other = PhaseSpreader.phaseOffset("http://localhost:9055|1|0|3|C", period);
+
+        assertEquals(first, again);
+        assertNotEquals(first, other);
+        assertTrue(!first.isNegative() && first.compareTo(period) < 0);
+    }
+
+    @Test
+    void nextSlotLandsOnSameWallClockPhaseAfterRestart() {
+        Duration period = Duration.ofMinutes(10);
+        String key = "reader-1";
+        long phaseMs = PhaseSpreader.phaseOffset(key, period).toMillis();
+
+        Instant firstStart = Instant.parse("2026-10-19T10:00:00Z");
+        Instant restart = Instant.parse("2026-10-19T10:03:17.250Z");
+        Instant firstFire = PhaseSpreader.nextSlot(key, period, firstStart);
+        Instant restartFire = PhaseSpreader.nextSlot(key, period, restart);
+
+        assertEquals(phaseMs, Math.floorMod(firstFire.toEpochMilli(), period.toMillis()));
+        assertEquals(phaseMs, Math.floorMod(restartFire.toEpochMilli(), period.toMillis()));
+        assertTrue(!restartFire.isBefore(restart) && restartFire.isBefore(restart.plus(period)));
+    }
+
+    @Test
+    void slotsDoNotDriftWithJitterAndLatency() {
+        Duration period = Duration.ofSeconds(200);
+        Duration jitter = Duration.ofSeconds(30);
+        Duration latency = Duration.ofSeconds(5);
+        String key = "reader-1";
+
+        Instant first = PhaseSpreader.nextSlot(key, period, Instant.parse("2026-10-19T10:00:00Z"));
+        Instant slot = first;
+        for (int k = 1; k <= 1000; k++) {
+            Instant completedAt = slot.plus(PhaseSpreader.jitter(jitter)).plus(latency);
+            Instant notBefore = slot.plus(period);
+            if (completedAt.isAfter(notBefore)) {
+                notBefore = completedAt;
+            }
+            slot = PhaseSpreader.nextSlot(key, period, notBefore);
+            assertEquals(first.plus(period.multipliedBy(k)), slot);
+        }
+    }
+
+    @Test
+    void stepDelayKeepsRoundLengthAndSpreadsSteps() {
+        Duration delay = PhaseSpreader.stepDelay(Duration.ofMinutes(10), Duration.ofSeconds(1), 3);
+
+        assertEquals(Duration.ofSeconds(602).dividedBy(3), delay);
+        assertEquals(Duration.ofMinutes(10), PhaseSpreader.stepDelay(Duration.ofMinutes(10), Duration.ofSeconds(1), 1));
+    }
+
+    @Test
+    void jitterIsBounded() {
+        assertEquals(Duration.ZERO, PhaseSpreader.jitter(Duration.ZERO));
+        for (int i = 0; i < 100; i++) {
+            Duration jitter = PhaseSpreader.jitter(Duration.ofSeconds(2));
+            assertTrue(!jitter.isNegative() && jitter.compareTo(Duration.ofSeconds(2)) <= 0);
+        }
+    }
+}
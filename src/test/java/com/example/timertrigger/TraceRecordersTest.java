@@ -0,0 +1,58 @@
+package com.example.timertrigger;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class TraceRecordersTest {
+    @Test
+    void returnsJfrRecorderWhenFlightRecorderIsAvailable() {
+        TraceRecorder recorder = TraceRecorders.get();
+
+        assertNotNull(recorder);
+        if (jfrAvailable()) {
+            assertEquals("com.example.timertrigger.JfrTraceRecorder", recorder.getClass().getName());
+        } else {
+            assertEquals(TraceRecorder.NOOP, recorder);
+        }
+    }
+
+    @Test
+    void recorderHandlesFullCycleIncludingFailures() {
+        TraceRecorder recorder = TraceRecorders.get();
+
+        assertDoesNotThrow(() -> {
+            recorder.endTrigger(recorder.beginTrigger(), 4, 1, 0, 1_000L, 1_010L);
+            recorder.endHttpConnect(recorder.beginHttpConnect(), 4, 1, 0, "http://localhost:9055", new IOException("refused"));
+            recorder.endHttpResponse(recorder.beginHttpResponse(), 4, 1, 0, 200, null);
+            recorder.endHttpRead(recorder.beginHttpRead(), 4, 1, 0, 2, null);
+            recorder.endLogWrite(recorder.beginLogWrite(), "logs/2026-10-19.txt", 6, new IOException("disk full"));
+        });
+    }
+
+    @Test
+    void noopAcceptsNullSpans() {
+        TraceRecorder recorder = TraceRecorder.NOOP;
+
+        assertDoesNotThrow(() -> {
+            recorder.endTrigger(null, 1, 1, 0, 0L, 0L);
+            recorder.endHttpConnect(null, 1, 1, 0, null, null);
+            recorder.endHttpResponse(null, 1, 1, 0, -1, new IOException("timeout"));
+            recorder.endHttpRead(null, 1, 1, 0, 0, null);
+            recorder.endLogWrite(null, null, 0, null);
+        });
+    }
+
+    private boolean jfrAvailable() {
+        try {
+            Class<?> flightRecorder = Class.forName("jdk.jfr.FlightRecorder");
+            return Boolean.TRUE.equals(flightRecorder.getMethod("isAvailable").invoke(null));
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return false;
+        }
+    }
+}
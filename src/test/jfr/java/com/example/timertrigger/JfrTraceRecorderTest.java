@@ -0,0 +1,64 @@
+package com.example.timertrigger;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class JfrTraceRecorderTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void recordsFailedConnectPhase() throws Exception {
+        JfrTraceRecorder recorder = new JfrTraceRecorder();
+        Path file = dir.resolve("test.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.timertrigger.HttpConnect").withThreshold(Duration.ZERO);
+            recording.start();
+            Object span = recorder.beginHttpConnect();
+            recorder.endHttpConnect(span, 4, 1, 2, "http://missing.invalid:9055", new UnknownHostException("missing.invalid"));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        assertEquals(2, event.getInt("devicePort"));
+        assertEquals("java.net.UnknownHostException: missing.invalid", event.getString("failure"));
+    }
+
+    @Test
+    void recordsFailedLogWriteWithBytesWritten() throws Exception {
+        Path notADirectory = Files.write(dir.resolve("logs"), new byte[0]);
+        LogWriter writer = new LogWriter(notADirectory.toString(), 0, false, 0, 0, "none");
+        Path file = dir.resolve("log.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.timertrigger.LogWrite").withThreshold(Duration.ZERO);
+            recording.start();
+            writer.info("abc");
+            recording.stop();
+            recording.dump(file);
+        }
+        writer.close();
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        long expectedBytes = ("0000-00-00 00:00:00 [INFO] abc" + System.lineSeparator()).getBytes(StandardCharsets.UTF_8).length;
+        assertEquals(expectedBytes, event.getLong("bytes"));
+        assertNotNull(event.getString("failure"));
+    }
+}
@@ -7,6 +7,7 @@ CONFIG_PATH="${SCRIPT_DIR}/config.yaml"
 PID_FILE="${SCRIPT_DIR}/timer-trigger.pid"
 LOG_DIR="${SCRIPT_DIR}/logs"
 LOG_FILE="${LOG_DIR}/console.out"
+LOG_CONSOLE="${TIMER_TRIGGER_LOG_CONSOLE:-none}"
 
 mkdir -p "${LOG_DIR}"
 
@@ -17,6 +18,15 @@ if [[ -f "${PID_FILE}" ]]; then
   fi
 fi
 
-nohup java -jar "${JAR_PATH}" --config "${CONFIG_PATH}" > "${LOG_FILE}" 2>&1 &
+if [[ -s "${LOG_FILE}" ]]; then
+  mv "${LOG_FILE}" "${LOG_DIR}/console-$(date +%Y%m%d-%H%M%S).out"
+fi
+
+JFR_OPTS=()
+if [[ "${TIMER_TRIGGER_JFR:-0}" == "1" ]]; then
+  JFR_OPTS=("-XX:StartFlightRecording=settings=default,settings=${SCRIPT_DIR}/timer-trigger.jfc,disk=true,maxage=1d,filename=${LOG_DIR}/")
+fi
+
+nohup java ${JFR_OPTS[@]+"${JFR_OPTS[@]}"} -jar "${JAR_PATH}" --config "${CONFIG_PATH}" --log-dir "${LOG_DIR}" --log-console "${LOG_CONSOLE}" > "${LOG_FILE}" 2>&1 &
 echo $! > "${PID_FILE}"
 echo "Started timer-trigger (PID $!). Logs: ${LOG_FILE}"